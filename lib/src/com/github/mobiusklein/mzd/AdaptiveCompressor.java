@@ -0,0 +1,257 @@
+package com.github.mobiusklein.mzd;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compresses arrays while adjusting the transform and zstd level to hold either a
+ * target encoding throughput or a per-array latency budget.
+ *
+ * The bytes and time spent encoding each array are folded into separate
+ * exponential moving averages, so throughput is the ratio of recent bytes to
+ * recent time rather than an average of per-array rates. The first array after
+ * construction and after every change of settings is not measured, since its
+ * timing includes JIT and allocation warm-up for the new code path. Once enough
+ * arrays have been seen at the current settings, the compressor steps one rung toward faster
+ * settings if the target is being missed, or one rung toward stronger settings if
+ * there is ample headroom. Each rung that missed the target the last time it
+ * was tried has its own hold-off before it is probed again, doubling with each
+ * consecutive miss at that rung, so a large speed gap between two neighbouring
+ * rungs does not make the compressor alternate between them. The settings used
+ * for each array are exposed via {@link #getLastSettings()} so they can be
+ * logged alongside the output and used to pick the matching
+ * {@link MZDCodec#decompress(byte[], Class, CompressionSettings)} call.
+ *
+ * Instances are not thread safe; use one per writer thread.
+ */
+public class AdaptiveCompressor {
+
+    /**
+     * The settings the compressor moves between, ordered from fastest to strongest.
+     * The rungs below {@link CompressionProfile#REALTIME} use zstd's negative fast
+     * levels, which trade ratio for speed when even level 1 cannot keep up.
+     * Dictionary encoding is left out because it only pays off on low cardinality
+     * data, which this controller has no way to detect from timings alone.
+     */
+    public static final List<CompressionSettings> LADDER = Collections.unmodifiableList(Arrays.asList(
+            new CompressionSettings(Transform.NONE, -5),
+            new CompressionSettings(Transform.NONE, -1),
+            CompressionProfile.REALTIME.getSettings(),
+            new CompressionSettings(Transform.NONE, 3),
+            new CompressionSettings(Transform.BYTE_SHUFFLE, 1),
+            CompressionProfile.BALANCED.getSettings(),
+            new CompressionSettings(Transform.BYTE_SHUFFLE, 6),
+            new CompressionSettings(Transform.BYTE_SHUFFLE, 9),
+            new CompressionSettings(Transform.BYTE_SHUFFLE, 12),
+            new CompressionSettings(Transform.BYTE_SHUFFLE, 15),
+            CompressionProfile.ARCHIVE.getSettings()));
+
+    /**
+     * Weight given to the newest measurement in the moving averages
+     */
+    static final double SMOOTHING = 0.25;
+
+    /**
+     * Number of arrays to observe at a setting before deciding whether to move
+     */
+    public static final int MIN_SAMPLES = 4;
+
+    /**
+     * How far the measurement must beat the target before stepping to stronger
+     * settings. This only absorbs measurement noise; rungs that are much slower
+     * than their neighbour are kept from oscillating by the probe hold-off.
+     */
+    static final double HEADROOM = 1.5;
+
+    /**
+     * Upper bound on the doubling of the probe hold-off, in powers of two of
+     * {@link #MIN_SAMPLES} arrays
+     */
+    static final int MAX_BACKOFF_SHIFT = 10;
+
+    private final double targetMBPerSecond;
+    private final long latencyBudgetNanos;
+
+    private int position;
+    private int samplesAtPosition;
+    private boolean warmingUp;
+    private double meanBytes;
+    private double meanNanos;
+    private CompressionSettings lastSettings;
+
+    /**
+     * The ratio of measurement to target last seen at each rung, {@code NaN} if
+     * the rung has not been measured
+     */
+    private final double[] lastRatios;
+    /**
+     * The number of consecutive times each rung has missed the target
+     */
+    private final int[] failedProbes;
+    /**
+     * The value of {@link #arraysSeen} from which each rung that previously
+     * missed the target may be probed again
+     */
+    private final long[] probeAllowedAt;
+    /**
+     * The number of arrays measured since construction
+     */
+    private long arraysSeen;
+
+    private AdaptiveCompressor(double targetMBPerSecond, long latencyBudgetNanos) {
+        this.targetMBPerSecond = targetMBPerSecond;
+        this.latencyBudgetNanos = latencyBudgetNanos;
+        this.position = LADDER.indexOf(CompressionProfile.BALANCED.getSettings());
+        this.samplesAtPosition = 0;
+        this.warmingUp = true;
+        this.lastRatios = new double[LADDER.size()];
+        Arrays.fill(this.lastRatios, Double.NaN);
+        this.failedProbes = new int[LADDER.size()];
+        this.probeAllowedAt = new long[LADDER.size()];
+        this.arraysSeen = 0;
+    }
+
+    /**
+     * Create a compressor that holds the recent encoding throughput, total bytes
+     * of input over total encoding time, at or above the given number of
+     * megabytes (10^6 bytes) per second
+     */
+    public static AdaptiveCompressor forThroughput(double targetMBPerSecond) {
+        if (!(targetMBPerSecond > 0)) {
+            throw new IllegalArgumentException("target throughput must be positive");
+        }
+        return new AdaptiveCompressor(targetMBPerSecond, -1);
+    }
+
+    /**
+     * Create a compressor that holds the mean time to encode one array at or
+     * below the given number of nanoseconds
+     */
+    public static AdaptiveCompressor forLatency(long latencyBudgetNanos) {
+        if (latencyBudgetNanos <= 0) {
+            throw new IllegalArgumentException("latency budget must be positive");
+        }
+        return new AdaptiveCompressor(Double.NaN, latencyBudgetNanos);
+    }
+
+    /**
+     * Compress an array with the current settings and update the controller
+     */
+    public <T extends Comparable<T>> byte[] compress(List<T> data, Class<T> tClass) {
+        CompressionSettings settings = getCurrentSettings();
+        long start = System.nanoTime();
+        byte[] buffer = MZDCodec.compress(data, tClass, settings);
+        long elapsed = System.nanoTime() - start;
+
+        lastSettings = settings;
+        record((long) data.size() * Utils.getSizeOfType(tClass), elapsed);
+        return buffer;
+    }
+
+    /**
+     * Compress an array with the current settings and update the controller
+     */
+    public <T extends Comparable<T>> byte[] compress(T[] data, Class<T> tClass) {
+        return compress(Arrays.asList(data), tClass);
+    }
+
+    /**
+     * Fold one measurement into the moving averages and step along the ladder
+     * if the target is being missed or comfortably beaten.
+     *
+     * {@link #compress(List, Class)} calls this for every array. Callers that
+     * encode with {@link #getCurrentSettings()} themselves, for example to time
+     * a larger unit of work, can report their own measurements here instead.
+     */
+    public void record(long bytes, long elapsedNanos) {
+        if (bytes <= 0) {
+            return;
+        }
+        elapsedNanos = Math.max(elapsedNanos, 1);
+        arraysSeen++;
+
+        if (warmingUp) {
+            warmingUp = false;
+            return;
+        }
+
+        if (samplesAtPosition == 0) {
+            meanBytes = bytes;
+            meanNanos = elapsedNanos;
+        } else {
+            meanBytes += SMOOTHING * (bytes - meanBytes);
+            meanNanos += SMOOTHING * (elapsedNanos - meanNanos);
+        }
+        samplesAtPosition++;
+
+        if (samplesAtPosition < MIN_SAMPLES) {
+            return;
+        }
+
+        // Greater than 1 when the target is met, less than 1 when it is missed
+        double ratio;
+        if (latencyBudgetNanos > 0) {
+            ratio = latencyBudgetNanos / meanNanos;
+        } else {
+            ratio = (meanBytes * 1e3 / meanNanos) / targetMBPerSecond;
+        }
+        lastRatios[position] = ratio;
+
+        if (ratio < 1.0) {
+            if (position > 0) {
+                failedProbes[position]++;
+                int shift = Math.min(failedProbes[position], MAX_BACKOFF_SHIFT);
+                probeAllowedAt[position] = arraysSeen + ((long) MIN_SAMPLES << shift);
+                moveTo(position - 1);
+            }
+            return;
+        }
+
+        failedProbes[position] = 0;
+        if (ratio > HEADROOM && position < LADDER.size() - 1) {
+            int next = position + 1;
+            if (Double.isNaN(lastRatios[next]) || lastRatios[next] >= 1.0
+                    || arraysSeen >= probeAllowedAt[next]) {
+                moveTo(position + 1);
+            }
+        }
+    }
+
+    private void moveTo(int newPosition) {
+        position = newPosition;
+        samplesAtPosition = 0;
+        warmingUp = true;
+    }
+
+    /**
+     * The settings that will be applied to the next array
+     */
+    public CompressionSettings getCurrentSettings() {
+        return LADDER.get(position);
+    }
+
+    /**
+     * The settings that were applied to the most recently compressed array, or
+     * {@code null} if nothing has been compressed yet
+     */
+    public CompressionSettings getLastSettings() {
+        return lastSettings;
+    }
+
+    /**
+     * The moving average of bytes encoded over the moving average of encoding
+     * time in MB/s at the current settings, or {@code NaN} if no array has been measured at them yet
+     */
+    public double getMeanThroughput() {
+        return samplesAtPosition == 0 ? Double.NaN : meanBytes * 1e3 / meanNanos;
+    }
+
+    /**
+     * The moving average of per-array encoding time in nanoseconds at the current
+     * settings, or {@code NaN} if no array has been measured at them yet
+     */
+    public double getMeanLatencyNanos() {
+        return samplesAtPosition == 0 ? Double.NaN : meanNanos;
+    }
+}
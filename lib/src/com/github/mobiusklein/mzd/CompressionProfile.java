@@ -0,0 +1,32 @@
+package com.github.mobiusklein.mzd;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Named trade-offs between encoding speed and compression ratio
+ */
+public enum CompressionProfile {
+    /**
+     * Keep up with acquisition: no transform and the fastest regular zstd level
+     */
+    REALTIME(new CompressionSettings(Transform.NONE, 1)),
+    /**
+     * Byte shuffling at the zstd default level
+     */
+    BALANCED(new CompressionSettings(Transform.BYTE_SHUFFLE, 3)),
+    /**
+     * Maximum ratio for re-packing archived data, regardless of encoding time:
+     * byte shuffling at the highest level zstd supports
+     */
+    ARCHIVE(new CompressionSettings(Transform.BYTE_SHUFFLE, Zstd.maxCompressionLevel()));
+
+    private final CompressionSettings settings;
+
+    CompressionProfile(CompressionSettings settings) {
+        this.settings = settings;
+    }
+
+    public CompressionSettings getSettings() {
+        return settings;
+    }
+}
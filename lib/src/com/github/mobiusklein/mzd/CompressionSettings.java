@@ -0,0 +1,58 @@
+package com.github.mobiusklein.mzd;
+
+import java.util.Objects;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * An array transform paired with the zstd compression level to apply after it.
+ * The string form is intended to be written to logs so the settings used for
+ * an array can be audited later. Level 0, which zstd treats as its default
+ * level, is stored as that default so equal output means equal settings.
+ */
+public final class CompressionSettings {
+    private final Transform transform;
+    private final int level;
+
+    public CompressionSettings(Transform transform, int level) {
+        if (transform == null) {
+            throw new IllegalArgumentException("transform must not be null");
+        }
+        if (level < Zstd.minCompressionLevel() || level > Zstd.maxCompressionLevel()) {
+            throw new IllegalArgumentException("zstd level " + level + " is outside of ["
+                    + Zstd.minCompressionLevel() + ", " + Zstd.maxCompressionLevel() + "]");
+        }
+        this.transform = transform;
+        this.level = level == 0 ? Zstd.defaultCompressionLevel() : level;
+    }
+
+    public Transform getTransform() {
+        return transform;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompressionSettings)) {
+            return false;
+        }
+        CompressionSettings other = (CompressionSettings) o;
+        return transform == other.transform && level == other.level;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(transform, level);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionSettings(transform=" + transform + ", level=" + level + ")";
+    }
+}
@@ -213,20 +213,31 @@ public class MZDCodec {
      * Apply compression to a data buffer
      */
     public static <T> byte[] compress(List<T> data, Class<T> tClass) {
+        return compress(data, tClass, Zstd.defaultCompressionLevel());
+    }
+
+    /**
+     * Apply compression to a data buffer at the given zstd level
+     */
+    public static <T> byte[] compress(List<T> data, Class<T> tClass, int level) {
         byte[] byteData = new byte[data.size() * Utils.getSizeOfType(tClass)];
         ByteBuffer buffer = ByteBuffer.wrap(byteData).order(ByteOrder.LITTLE_ENDIAN);
         Utils.toBuffer(data, tClass, buffer);
-        return Zstd.compress(byteData);
+        return Zstd.compress(byteData, level);
     }
 
     /**
      * Apply compression to a data buffer
      */
     public static <T> byte[] compress(T[] data, Class<T> tClass) {
-        byte[] byteData = new byte[data.length * Utils.getSizeOfType(tClass)];
-        ByteBuffer buffer = ByteBuffer.wrap(byteData).order(ByteOrder.LITTLE_ENDIAN);
-        Utils.toBuffer(Arrays.asList(data), tClass, buffer);
-        return Zstd.compress(byteData);
+        return compress(Arrays.asList(data), tClass);
+    }
+
+    /**
+     * Apply compression to a data buffer at the given zstd level
+     */
+    public static <T> byte[] compress(T[] data, Class<T> tClass, int level) {
+        return compress(Arrays.asList(data), tClass, level);
     }
 
     /**
@@ -252,16 +263,29 @@ public class MZDCodec {
      * Apply byte shuffling and compression
      */
     public static <T> byte[] byteShuffleCompress(T[] data, Class<T> tClass) {
-        byte[] buffer = transposeBytes(Arrays.asList(data), tClass);
-        return Zstd.compress(buffer);
+        return byteShuffleCompress(Arrays.asList(data), tClass);
+    }
+
+    /**
+     * Apply byte shuffling and compression at the given zstd level
+     */
+    public static <T> byte[] byteShuffleCompress(T[] data, Class<T> tClass, int level) {
+        return byteShuffleCompress(Arrays.asList(data), tClass, level);
     }
 
     /**
      * Apply byte shuffling and compression
      */
     public static <T> byte[] byteShuffleCompress(List<T> data, Class<T> tClass) {
+        return byteShuffleCompress(data, tClass, Zstd.defaultCompressionLevel());
+    }
+
+    /**
+     * Apply byte shuffling and compression at the given zstd level
+     */
+    public static <T> byte[] byteShuffleCompress(List<T> data, Class<T> tClass, int level) {
         byte[] buffer = transposeBytes(data, tClass);
-        return Zstd.compress(buffer);
+        return Zstd.compress(buffer, level);
     }
 
     /**
@@ -277,18 +301,30 @@ public class MZDCodec {
      * Apply dictionary encoding and compression
      */
     public static <T extends Comparable<T>> byte[] dictionaryCompress(List<T> data, Class<T> tClass) {
+        return dictionaryCompress(data, tClass, Zstd.defaultCompressionLevel());
+    }
+
+    /**
+     * Apply dictionary encoding and compression at the given zstd level
+     */
+    public static <T extends Comparable<T>> byte[] dictionaryCompress(List<T> data, Class<T> tClass, int level) {
         byte[] buffer = DictCodec.dictEncode(data, tClass);
 
-        return Zstd.compress(buffer);
+        return Zstd.compress(buffer, level);
     }
 
     /**
      * Apply dictionary encoding and compression
      */
     public static <T extends Comparable<T>> byte[] dictionaryCompress(T[] data, Class<T> tClass) {
-        byte[] buffer = DictCodec.dictEncode(Arrays.asList(data), tClass);
+        return dictionaryCompress(Arrays.asList(data), tClass);
+    }
 
-        return Zstd.compress(buffer);
+    /**
+     * Apply dictionary encoding and compression at the given zstd level
+     */
+    public static <T extends Comparable<T>> byte[] dictionaryCompress(T[] data, Class<T> tClass, int level) {
+        return dictionaryCompress(Arrays.asList(data), tClass, level);
     }
 
     /**
@@ -300,6 +336,72 @@ public class MZDCodec {
         return DictCodec.dictDecode(decompressed, tClass);
     }
 
+    /**
+     * Apply the transform and zstd level described by a set of compression settings
+     */
+    public static <T extends Comparable<T>> byte[] compress(List<T> data, Class<T> tClass,
+            CompressionSettings settings) {
+        int level = settings.getLevel();
+        switch (settings.getTransform()) {
+            case NONE:
+                return compress(data, tClass, level);
+            case BYTE_SHUFFLE:
+                return byteShuffleCompress(data, tClass, level);
+            case DICTIONARY:
+                return dictionaryCompress(data, tClass, level);
+            default:
+                throw new RuntimeException("Unsupported transform: " + settings.getTransform());
+        }
+    }
+
+    /**
+     * Apply the transform and zstd level described by a set of compression settings
+     */
+    public static <T extends Comparable<T>> byte[] compress(T[] data, Class<T> tClass,
+            CompressionSettings settings) {
+        return compress(Arrays.asList(data), tClass, settings);
+    }
+
+    /**
+     * Apply the transform and zstd level of a named compression profile
+     */
+    public static <T extends Comparable<T>> byte[] compress(List<T> data, Class<T> tClass,
+            CompressionProfile profile) {
+        return compress(data, tClass, profile.getSettings());
+    }
+
+    /**
+     * Apply the transform and zstd level of a named compression profile
+     */
+    public static <T extends Comparable<T>> byte[] compress(T[] data, Class<T> tClass,
+            CompressionProfile profile) {
+        return compress(Arrays.asList(data), tClass, profile.getSettings());
+    }
+
+    /**
+     * Decompress a buffer written with the given transform. The zstd level
+     * does not need to be known to decompress.
+     */
+    public static <T> ArrayList<T> decompress(byte[] buffer, Class<T> tClass, Transform transform) {
+        switch (transform) {
+            case NONE:
+                return decompress(buffer, tClass);
+            case BYTE_SHUFFLE:
+                return byteShuffleDecompress(buffer, tClass);
+            case DICTIONARY:
+                return dictionaryDecompress(buffer, tClass);
+            default:
+                throw new RuntimeException("Unsupported transform: " + transform);
+        }
+    }
+
+    /**
+     * Decompress a buffer written with the given compression settings
+     */
+    public static <T> ArrayList<T> decompress(byte[] buffer, Class<T> tClass, CompressionSettings settings) {
+        return decompress(buffer, tClass, settings.getTransform());
+    }
+
     // /**
     //  * Apply delta encoding, byte shuffling, and compression
     //  */
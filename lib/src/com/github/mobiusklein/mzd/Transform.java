@@ -0,0 +1,19 @@
+package com.github.mobiusklein.mzd;
+
+/**
+ * The array transformation applied before zstd compression
+ */
+public enum Transform {
+    /**
+     * Compress the little endian bytes of the array as-is
+     */
+    NONE,
+    /**
+     * Transpose the bytes of each value so that bytes of equal significance are adjacent
+     */
+    BYTE_SHUFFLE,
+    /**
+     * Encode the array as a sorted table of unique values and an index per value
+     */
+    DICTIONARY
+}
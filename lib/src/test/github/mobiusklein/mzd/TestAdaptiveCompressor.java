@@ -0,0 +1,178 @@
+package test.github.mobiusklein.mzd;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.mobiusklein.mzd.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the controller with synthetic (bytes, nanoseconds) measurements
+ */
+class TestAdaptiveCompressor {
+
+    static final int START = AdaptiveCompressor.LADDER.indexOf(CompressionProfile.BALANCED.getSettings());
+
+    static final long MEGABYTE = 1_000_000;
+
+    /**
+     * Nanoseconds needed to encode a megabyte at the given rate in MB/s
+     */
+    static long nanosPerMegabyte(double mbPerSecond) {
+        return (long) (1e9 / mbPerSecond);
+    }
+
+    static int position(AdaptiveCompressor compressor) {
+        return AdaptiveCompressor.LADDER.indexOf(compressor.getCurrentSettings());
+    }
+
+    static void feed(AdaptiveCompressor compressor, int count, long bytes, long nanos) {
+        for (int i = 0; i < count; i++) {
+            compressor.record(bytes, nanos);
+        }
+    }
+
+    @Test
+    void testThroughputStepDown() {
+        AdaptiveCompressor compressor = AdaptiveCompressor.forThroughput(100);
+        // One warm-up array, then one short of enough samples to decide
+        feed(compressor, AdaptiveCompressor.MIN_SAMPLES, MEGABYTE, nanosPerMegabyte(50));
+        assertEquals(START, position(compressor));
+        feed(compressor, 1, MEGABYTE, nanosPerMegabyte(50));
+        assertEquals(START - 1, position(compressor));
+    }
+
+    @Test
+    void testThroughputStepUp() {
+        AdaptiveCompressor compressor = AdaptiveCompressor.forThroughput(100);
+        feed(compressor, AdaptiveCompressor.MIN_SAMPLES + 1, MEGABYTE, nanosPerMegabyte(200));
+        assertEquals(START + 1, position(compressor));
+    }
+
+    @Test
+    void testWarmUpIgnored() {
+        AdaptiveCompressor compressor = AdaptiveCompressor.forThroughput(100);
+        compressor.record(MEGABYTE, nanosPerMegabyte(1));
+        assertTrue(Double.isNaN(compressor.getMeanThroughput()));
+        feed(compressor, 40, MEGABYTE, nanosPerMegabyte(120));
+        assertEquals(START, position(compressor));
+        assertEquals(120, compressor.getMeanThroughput(), 1.0);
+    }
+
+    @Test
+    void testThroughputDeadBand() {
+        AdaptiveCompressor compressor = AdaptiveCompressor.forThroughput(100);
+        feed(compressor, 40, MEGABYTE, nanosPerMegabyte(120));
+        assertEquals(START, position(compressor));
+        assertEquals(120, compressor.getMeanThroughput(), 1.0);
+    }
+
+    @Test
+    void testLatencyBudget() {
+        AdaptiveCompressor compressor = AdaptiveCompressor.forLatency(1_000_000);
+        feed(compressor, 40, MEGABYTE, 800_000);
+        assertEquals(START, position(compressor));
+        // Enough arrays have been seen already, so one slow array that pulls the
+        // mean over budget is enough to step down
+        feed(compressor, 1, MEGABYTE, 2_000_000);
+        assertEquals(START - 1, position(compressor));
+        assertTrue(Double.isNaN(compressor.getMeanLatencyNanos()));
+    }
+
+    @Test
+    void testMixedArraySizes() {
+        // Small arrays encode at 10 MB/s and large ones at 1000 MB/s; together
+        // they run at roughly 900 MB/s, which must not be read as a miss
+        AdaptiveCompressor compressor = AdaptiveCompressor.forThroughput(700);
+        for (int i = 0; i < 40; i++) {
+            compressor.record(1_000, 100_000);
+            compressor.record(MEGABYTE, 1_000_000);
+            assertEquals(START, position(compressor));
+        }
+        assertTrue(compressor.getMeanThroughput() > 700);
+    }
+
+    @Test
+    void testFailedProbeBackoff() {
+        // The rung above the start is far too slow, the start rung has headroom
+        AdaptiveCompressor compressor = AdaptiveCompressor.forThroughput(100);
+        int arraysAbove = 0;
+        int probes = 0;
+        int previous = START;
+        for (int i = 0; i < 400; i++) {
+            int current = position(compressor);
+            assertTrue(current == START || current == START + 1);
+            if (current == START + 1) {
+                arraysAbove++;
+                if (previous == START) {
+                    probes++;
+                }
+            }
+            previous = current;
+            double rate = current == START ? 200 : 20;
+            compressor.record(MEGABYTE, nanosPerMegabyte(rate));
+        }
+        assertTrue(probes > 1, "the slow rung should be re-probed");
+        assertTrue(arraysAbove < 40, "spent " + arraysAbove + " of 400 arrays on the slow rung");
+    }
+
+    @Test
+    void testBackoffIsPerRung() {
+        // Two rungs above the start is far too slow. After it has missed three
+        // times its hold-off is 32 arrays; a single miss at the rung below it
+        // must not cut that short.
+        AdaptiveCompressor compressor = AdaptiveCompressor.forThroughput(100);
+        int slow = START + 2;
+        int failures = 0;
+        boolean dipped = false;
+        long sinceThirdFailure = -1;
+        int previous = START;
+        for (int i = 0; i < 1000; i++) {
+            int current = position(compressor);
+            assertTrue(current >= START && current <= slow);
+            if (previous == slow && current == slow - 1) {
+                failures++;
+                if (failures == 3) {
+                    sinceThirdFailure = 0;
+                }
+            }
+            if (failures == 3 && current == START) {
+                dipped = true;
+            }
+            if (failures == 3 && current == slow) {
+                break;
+            }
+            previous = current;
+
+            double rate;
+            if (current == slow) {
+                rate = 20;
+            } else if (current == START + 1 && failures == 3 && !dipped) {
+                rate = 50;
+            } else {
+                rate = 200;
+            }
+            compressor.record(MEGABYTE, nanosPerMegabyte(rate));
+            if (sinceThirdFailure >= 0) {
+                sinceThirdFailure++;
+            }
+        }
+        assertTrue(dipped, "the rung below the slow one should have missed once");
+        assertEquals(slow, position(compressor));
+        assertTrue(sinceThirdFailure >= (AdaptiveCompressor.MIN_SAMPLES << 3),
+                "slow rung re-probed after " + sinceThirdFailure + " arrays");
+    }
+
+    @Test
+    void testFastLevelsBelowRealtime() {
+        // Even the fastest regular level misses, so the negative levels are used
+        AdaptiveCompressor compressor = AdaptiveCompressor.forThroughput(100);
+        for (int i = 0; i < 100; i++) {
+            compressor.record(MEGABYTE, nanosPerMegabyte(50));
+        }
+        CompressionSettings fastest = compressor.getCurrentSettings();
+        assertEquals(AdaptiveCompressor.LADDER.get(0), fastest);
+        assertEquals(Transform.NONE, fastest.getTransform());
+        assertTrue(fastest.getLevel() < CompressionProfile.REALTIME.getSettings().getLevel());
+    }
+}
@@ -66,4 +66,87 @@ class TestCodecs {
             assert val == ref;
         }
     }
+
+    @Test
+    void testProfileEncode() {
+        Double[] data = new Double[5];
+        data[0] = 1.0;
+        data[1] = 2.0;
+        data[2] = 3.0;
+        data[3] = 4.0;
+        data[4] = 5.0;
+        for (CompressionProfile profile : CompressionProfile.values()) {
+            byte[] buffer = MZDCodec.compress(data, double.class, profile);
+            ArrayList<Double> dup = MZDCodec.decompress(buffer, Double.class, profile.getSettings());
+            assertEquals(data.length, dup.size());
+            for (int i = 0; i < dup.size(); i++) {
+                assertEquals(data[i], dup.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testAdaptiveEncode() {
+        List<Double> data = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            data.add(i * 0.5);
+        }
+
+        AdaptiveCompressor fast = AdaptiveCompressor.forLatency(1);
+        for (int i = 0; i < 40; i++) {
+            byte[] buffer = fast.compress(data, Double.class);
+            ArrayList<Double> dup = MZDCodec.decompress(buffer, Double.class, fast.getLastSettings());
+            assertEquals(data, dup);
+        }
+        assertEquals(AdaptiveCompressor.LADDER.get(0), fast.getCurrentSettings());
+
+        AdaptiveCompressor strong = AdaptiveCompressor.forLatency(Long.MAX_VALUE);
+        for (int i = 0; i < 40; i++) {
+            byte[] buffer = strong.compress(data, Double.class);
+            ArrayList<Double> dup = MZDCodec.decompress(buffer, Double.class, strong.getLastSettings());
+            assertEquals(data, dup);
+        }
+        assertEquals(CompressionProfile.ARCHIVE.getSettings(), strong.getCurrentSettings());
+    }
+
+    @Test
+    void testSettingsEncode() {
+        List<Double> data = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            data.add((double) (i % 7));
+        }
+        for (Transform transform : Transform.values()) {
+            CompressionSettings settings = new CompressionSettings(transform, 5);
+            byte[] buffer = MZDCodec.compress(data, Double.class, settings);
+            ArrayList<Double> dup = MZDCodec.decompress(buffer, Double.class, settings);
+            assertEquals(data, dup);
+        }
+    }
+
+    @Test
+    void testLevelEncode() {
+        List<Double> data = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            data.add((double) (i % 7));
+        }
+        assertEquals(data, MZDCodec.decompress(MZDCodec.compress(data, Double.class, 7), Double.class));
+        assertEquals(data, MZDCodec.byteShuffleDecompress(
+                MZDCodec.byteShuffleCompress(data, Double.class, 7), Double.class));
+        assertEquals(data, MZDCodec.dictionaryDecompress(
+                MZDCodec.dictionaryCompress(data, Double.class, 7), Double.class));
+    }
+
+    @Test
+    void testSettingsRejectBadLevel() {
+        assertThrows(IllegalArgumentException.class, () -> new CompressionSettings(Transform.DICTIONARY, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new CompressionSettings(null, 3));
+    }
+
+    @Test
+    void testSettingsNormaliseDefaultLevel() {
+        CompressionSettings settings = new CompressionSettings(Transform.BYTE_SHUFFLE, 0);
+        assertEquals(CompressionProfile.BALANCED.getSettings(), settings);
+        assertEquals(3, settings.getLevel());
+        assertEquals("CompressionSettings(transform=BYTE_SHUFFLE, level=3)", settings.toString());
+    }
 }